@@ -6,7 +6,6 @@ import me.shedaniel.clothconfig2.api.ConfigEntryBuilder;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 import ninja.trek.copperstring.CopperStringSearch;
-import ninja.trek.copperstring.ItemFilterCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -40,10 +39,49 @@ public class ConfigScreenBuilder {
                     .build());
         }
 
-        builder.setSavingRunnable(() -> {
-            config.save();
-            ItemFilterCache.clearCache();
-        });
+        ConfigCategory matchingCategory = builder.getOrCreateCategory(
+                Component.literal("Matching"));
+
+        matchingCategory.addEntry(entryBuilder.startBooleanToggle(
+                        Component.literal("Match shulkers by majority content"),
+                        config.isShulkerMajorityMatching())
+                .setDefaultValue(false)
+                .setTooltip(Component.literal("Treat a shulker box as its most common item when more than half its items are that item"))
+                .setSaveConsumer(config::setShulkerMajorityMatching)
+                .build());
+
+        ConfigCategory transportCategory = builder.getOrCreateCategory(
+                Component.literal("Transport"));
+
+        transportCategory.addEntry(entryBuilder.startIntSlider(
+                        Component.literal("Golem carry capacity"),
+                        config.getGolemCarryCapacity(), 1, 64)
+                .setDefaultValue(16)
+                .setTooltip(Component.literal("Most items a copper golem takes per trip, up to the item's stack size (vanilla: 16)"))
+                .setSaveConsumer(config::setGolemCarryCapacity)
+                .build());
+
+        transportCategory.addEntry(entryBuilder.startBooleanToggle(
+                        Component.literal("Merge slots on pickup"),
+                        config.isMergePickupSlots())
+                .setDefaultValue(false)
+                .setTooltip(Component.literal("Top up a pickup from other slots holding the same item until the carry capacity is reached"))
+                .setSaveConsumer(config::setMergePickupSlots)
+                .build());
+
+        ConfigCategory performanceCategory = builder.getOrCreateCategory(
+                Component.literal("Performance"));
+
+        performanceCategory.addEntry(entryBuilder.startIntField(
+                        Component.literal("Filter cache size (KB)"),
+                        config.getFilterCacheMaxKilobytes())
+                .setDefaultValue(8192)
+                .setMin(64)
+                .setTooltip(Component.literal("Approximate memory bound for compiled golem and chest name filters"))
+                .setSaveConsumer(config::setFilterCacheMaxKilobytes)
+                .build());
+
+        builder.setSavingRunnable(config::save);
 
         return builder.build();
     }
@@ -0,0 +1,256 @@
+package ninja.trek.copperstring;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Per-dimension index of the loaded chests copper golems work with.
+ * Chest block entities are kept per chunk section, so a target search only
+ * visits chests inside its area; which of them are sources or destinations is
+ * left to the predicates of the searching behavior.
+ * Also maps item raw IDs to the copper chests currently holding them. Only
+ * copper chests are read for it: reading a chest that still has a loot table
+ * would roll its loot. Copper chests that report a change are queued and
+ * re-read from their contents summary on the next query, so busy chests cost
+ * nothing until a golem looks for items.
+ * Only touched from the server thread.
+ */
+public final class ChestIndex {
+
+    private static final Map<ResourceKey<Level>, ChestIndex> LEVELS = new ConcurrentHashMap<>();
+
+    private record IndexedChest(ChestBlockEntity blockEntity, BitSet items) {}
+
+    /**
+     * A chunk section grown by the search half-sizes, which covers the search
+     * area of any block inside the section.
+     */
+    private record Region(long section, int halfWidth, int halfHeight) {
+        BoundingBox bounds() {
+            int minX = SectionPos.sectionToBlockCoord(SectionPos.x(section)) - halfWidth;
+            int minY = SectionPos.sectionToBlockCoord(SectionPos.y(section)) - halfHeight;
+            int minZ = SectionPos.sectionToBlockCoord(SectionPos.z(section)) - halfWidth;
+            return new BoundingBox(minX, minY, minZ,
+                minX + SectionPos.SECTION_SIZE + 2 * halfWidth,
+                minY + SectionPos.SECTION_SIZE + 2 * halfHeight,
+                minZ + SectionPos.SECTION_SIZE + 2 * halfWidth);
+        }
+    }
+
+    private final ServerLevel level;
+
+    private final Long2ObjectMap<Set<ChestBlockEntity>> sections = new Long2ObjectOpenHashMap<>();
+    private final Set<ChestBlockEntity> changedChests = new ReferenceOpenHashSet<>();
+    private final Map<Region, List<ChestBlockEntity>> regionCandidates = new HashMap<>();
+    private long regionCandidatesTick = Long.MIN_VALUE;
+    private final Long2ObjectMap<IndexedChest> contents = new Long2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<LongSet> chestsByItem = new Int2ObjectOpenHashMap<>();
+
+    private ChestIndex(ServerLevel level) {
+        this.level = level;
+    }
+
+    public static void register() {
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, level) -> {
+            if (blockEntity instanceof ChestBlockEntity chest) {
+                ChestIndex index = get(level);
+                index.addToSection(chest);
+                if (isItemIndexed(chest)) {
+                    index.changedChests.add(chest);
+                }
+            }
+        });
+        ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((blockEntity, level) -> {
+            if (blockEntity instanceof ChestBlockEntity chest) {
+                ChestIndex index = get(level);
+                index.removeFromSection(chest);
+                index.removeChest(chest);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> LEVELS.clear());
+    }
+
+    public static ChestIndex get(ServerLevel level) {
+        return LEVELS.computeIfAbsent(level.dimension(), key -> new ChestIndex(level));
+    }
+
+    /**
+     * Called whenever a block entity reports a change.
+     */
+    public static void onChanged(BlockEntity blockEntity) {
+        if (blockEntity.getLevel() instanceof ServerLevel level && blockEntity instanceof ChestBlockEntity chest
+            && isItemIndexed(chest)) {
+            get(level).changedChests.add(chest);
+        }
+    }
+
+    /**
+     * Copper chests, the only chests whose contents the item index reads.
+     */
+    private static boolean isItemIndexed(ChestBlockEntity chest) {
+        return chest.getBlockState().is(BlockTags.COPPER_CHESTS);
+    }
+
+    /**
+     * Returns the loaded chests inside the area whose block matches the given
+     * predicate. Both halves of a double chest are returned; validating the
+     * target decides which one a golem can use.
+     * The candidates of the surrounding region are shared by every search in
+     * the same tick from the same chunk section with the same search size, so
+     * golems working one room scan the index once per tick.
+     */
+    public List<ChestBlockEntity> chestsIn(AABB area, Predicate<BlockState> blockType) {
+        long tick = level.getGameTime();
+        if (tick != regionCandidatesTick) {
+            regionCandidates.clear();
+            regionCandidatesTick = tick;
+        }
+        Region region = new Region(
+            SectionPos.asLong(BlockPos.containing(area.getCenter())),
+            Mth.ceil(area.getXsize() / 2), Mth.ceil(area.getYsize() / 2));
+        List<ChestBlockEntity> candidates = regionCandidates.computeIfAbsent(region, this::collectRegion);
+
+        List<ChestBlockEntity> chests = new ArrayList<>();
+        for (ChestBlockEntity chest : candidates) {
+            BlockPos pos = chest.getBlockPos();
+            if (!chest.isRemoved() && area.contains(pos.getX(), pos.getY(), pos.getZ())
+                && blockType.test(chest.getBlockState())) {
+                chests.add(chest);
+            }
+        }
+        return chests;
+    }
+
+    /**
+     * Collects the chests inside the bounds of a region.
+     */
+    private List<ChestBlockEntity> collectRegion(Region region) {
+        BoundingBox bounds = region.bounds();
+        List<ChestBlockEntity> chests = new ArrayList<>();
+        for (int x = SectionPos.blockToSectionCoord(bounds.minX()); x <= SectionPos.blockToSectionCoord(bounds.maxX()); x++) {
+            for (int z = SectionPos.blockToSectionCoord(bounds.minZ()); z <= SectionPos.blockToSectionCoord(bounds.maxZ()); z++) {
+                for (int y = SectionPos.blockToSectionCoord(bounds.minY()); y <= SectionPos.blockToSectionCoord(bounds.maxY()); y++) {
+                    Set<ChestBlockEntity> section = sections.get(SectionPos.asLong(x, y, z));
+                    if (section == null) continue;
+                    for (ChestBlockEntity chest : section) {
+                        if (bounds.isInside(chest.getBlockPos())) {
+                            chests.add(chest);
+                        }
+                    }
+                }
+            }
+        }
+        return chests;
+    }
+
+    private void addToSection(ChestBlockEntity blockEntity) {
+        BlockPos pos = blockEntity.getBlockPos();
+        sections.computeIfAbsent(SectionPos.asLong(pos), key -> new ReferenceOpenHashSet<>())
+            .add(blockEntity);
+        // Chests loaded or placed after a region was collected this tick would be
+        // missing from it until the next tick
+        regionCandidates.keySet().removeIf(region -> region.bounds().isInside(pos));
+    }
+
+    private void removeFromSection(ChestBlockEntity blockEntity) {
+        long key = SectionPos.asLong(blockEntity.getBlockPos());
+        Set<ChestBlockEntity> section = sections.get(key);
+        if (section != null && section.remove(blockEntity) && section.isEmpty()) {
+            sections.remove(key);
+        }
+    }
+
+    /**
+     * Returns the packed positions of the copper chests holding any of the given items.
+     */
+    public LongSet chestsHolding(BitSet items) {
+        flushChangedChests();
+        LongSet positions = new LongOpenHashSet();
+        for (int id = items.nextSetBit(0); id >= 0; id = items.nextSetBit(id + 1)) {
+            LongSet holding = chestsByItem.get(id);
+            if (holding != null) {
+                positions.addAll(holding);
+            }
+        }
+        return positions;
+    }
+
+    private void flushChangedChests() {
+        if (changedChests.isEmpty()) return;
+
+        // Reading a chest can unpack its loot table and report another change,
+        // so work on a copy and leave those for the next flush
+        List<ChestBlockEntity> batch = new ArrayList<>(changedChests);
+        changedChests.clear();
+        for (ChestBlockEntity blockEntity : batch) {
+            // Never roll loot here; opening the chest unpacks it and queues it again
+            if (blockEntity.isRemoved() || blockEntity.getLootTable() != null) continue;
+
+            ContainerSummary summary = ((ContainerSummaryHolder) blockEntity).copperstring$getContainerSummary();
+            BitSet items = (BitSet) summary.refresh(blockEntity).presentItems().clone();
+            long pos = blockEntity.getBlockPos().asLong();
+            IndexedChest previous = contents.put(pos, new IndexedChest(blockEntity, items));
+
+            BitSet removed = previous != null ? (BitSet) previous.items().clone() : new BitSet();
+            removed.andNot(items);
+            BitSet added = (BitSet) items.clone();
+            if (previous != null) added.andNot(previous.items());
+
+            for (int id = removed.nextSetBit(0); id >= 0; id = removed.nextSetBit(id + 1)) {
+                unindex(id, pos);
+            }
+            for (int id = added.nextSetBit(0); id >= 0; id = added.nextSetBit(id + 1)) {
+                chestsByItem.computeIfAbsent(id, i -> new LongOpenHashSet()).add(pos);
+            }
+        }
+    }
+
+    private void removeChest(ChestBlockEntity blockEntity) {
+        changedChests.remove(blockEntity);
+        long pos = blockEntity.getBlockPos().asLong();
+        IndexedChest indexed = contents.get(pos);
+        // A replacement block entity may already have been indexed at the same position
+        if (indexed == null || indexed.blockEntity() != blockEntity) return;
+
+        contents.remove(pos);
+        BitSet items = indexed.items();
+        for (int id = items.nextSetBit(0); id >= 0; id = items.nextSetBit(id + 1)) {
+            unindex(id, pos);
+        }
+    }
+
+    private void unindex(int id, long pos) {
+        LongSet holding = chestsByItem.get(id);
+        if (holding != null && holding.remove(pos) && holding.isEmpty()) {
+            chestsByItem.remove(id);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package ninja.trek.copperstring;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.core.Holder;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.effect.MobEffect;
+import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.alchemy.PotionContents;
+import net.minecraft.world.item.component.ItemLore;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.ItemEnchantments;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of the component (.) terms of a filter.
+ * Enchantment and potion effect names are resolved to registry holders when the
+ * filter is built, so matching reads ItemEnchantments and PotionContents directly.
+ * Terms without a level bound are also matched as text against lore, custom
+ * names and the rendered enchantment names with their level ("sharpness v"),
+ * as before. A term may end in a level bound, e.g. ".sharpness>=4" or ".speed=2".
+ */
+public final class ComponentPredicate {
+
+    private static final Pattern LEVEL_BOUND = Pattern.compile("(.+?)(>=|<=|>|<|=)(\\d{1,9})");
+
+    // Rendered, lowercased text per component value. Component values are immutable
+    // and shared between copies of a stack, so weak identity keys are exact.
+    private static final Cache<Object, String> COMPONENT_TEXT = CacheBuilder.newBuilder()
+        .weakKeys()
+        .maximumSize(16384)
+        .build();
+
+    private static volatile List<Named<Enchantment>> enchantmentNames = List.of();
+    private static volatile List<Named<MobEffect>> effectNames = List.of();
+
+    public static final ComponentPredicate EMPTY = builder().build();
+
+    private record Named<T>(Holder<T> holder, String path, String displayName) {
+        boolean matches(String term) {
+            return path.contains(term) || displayName.contains(term);
+        }
+    }
+
+    private record Bound(int mask, int min, int max) {}
+
+    private final Map<Holder<Enchantment>, List<Bound>> enchantments;
+    private final Map<Holder<MobEffect>, List<Bound>> effects;
+    private final TermMatcher text;
+    private final int termMasks;
+
+    private ComponentPredicate(Map<Holder<Enchantment>, List<Bound>> enchantments,
+                               Map<Holder<MobEffect>, List<Bound>> effects,
+                               TermMatcher text, int termMasks) {
+        this.enchantments = enchantments;
+        this.effects = effects;
+        this.text = text;
+        this.termMasks = termMasks;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Snapshots the registry and display names of every enchantment and potion effect.
+     * Enchantments live in a dynamic registry, so this needs the server's registries.
+     */
+    public static void rebuildNames(RegistryAccess registries) {
+        List<Named<Enchantment>> enchantments = new ArrayList<>();
+        registries.lookupOrThrow(Registries.ENCHANTMENT).listElements().forEach(holder ->
+            enchantments.add(named(holder, holder.value().description())));
+        List<Named<MobEffect>> effects = new ArrayList<>();
+        BuiltInRegistries.MOB_EFFECT.listElements().forEach(holder ->
+            effects.add(named(holder, holder.value().getDisplayName())));
+        enchantmentNames = List.copyOf(enchantments);
+        effectNames = List.copyOf(effects);
+    }
+
+    private static <T> Named<T> named(Holder<T> holder, Component displayName) {
+        String name = holder.getRegisteredName();
+        String path = name.substring(name.indexOf(':') + 1);
+        return new Named<>(holder, path, displayName.getString().toLowerCase());
+    }
+
+    public static void clearTextCache() {
+        COMPONENT_TEXT.invalidateAll();
+    }
+
+    public boolean isEmpty() {
+        return termMasks == 0;
+    }
+
+    /**
+     * Returns true if at least one term was added with any bit of the given mask.
+     */
+    public boolean hasTerms(int mask) {
+        return (termMasks & mask) != 0;
+    }
+
+    public int weightBytes() {
+        return 64 + (enchantments.size() + effects.size()) * 64 + text.stateCount() * 48;
+    }
+
+    /**
+     * Returns the union of the masks of all terms the stack satisfies.
+     * Stops early as soon as any bit of stopMask has been matched.
+     */
+    public int match(ItemStack stack, int stopMask) {
+        int found = 0;
+
+        if (!enchantments.isEmpty()) {
+            found |= matchEnchantments(stack.get(DataComponents.ENCHANTMENTS));
+            // Stored enchantments (enchanted books)
+            found |= matchEnchantments(stack.get(DataComponents.STORED_ENCHANTMENTS));
+            if ((found & stopMask) != 0) return found;
+        }
+
+        if (!effects.isEmpty()) {
+            PotionContents potionContents = stack.get(DataComponents.POTION_CONTENTS);
+            if (potionContents != null) {
+                for (MobEffectInstance effect : potionContents.getAllEffects()) {
+                    found |= matchLevel(effects.get(effect.getEffect()), effect.getAmplifier() + 1);
+                }
+                if ((found & stopMask) != 0) return found;
+            }
+        }
+
+        if (!text.isEmpty()) {
+            // Terms never contain whitespace, so matching each part on its own is the
+            // same as matching the space-joined text, without building it
+            found |= text.match(componentText(stack.get(DataComponents.LORE), ComponentPredicate::renderLore), stopMask);
+            if ((found & stopMask) != 0) return found;
+            found |= text.match(componentText(stack.get(DataComponents.CUSTOM_NAME), Component::getString), stopMask);
+            if ((found & stopMask) != 0) return found;
+            // Level text ("v", "iii") is only in the rendered names
+            found |= text.match(componentText(stack.get(DataComponents.ENCHANTMENTS), ComponentPredicate::renderEnchantments), stopMask);
+            if ((found & stopMask) != 0) return found;
+            found |= text.match(componentText(stack.get(DataComponents.STORED_ENCHANTMENTS), ComponentPredicate::renderEnchantments), stopMask);
+        }
+
+        return found;
+    }
+
+    private int matchEnchantments(@Nullable ItemEnchantments itemEnchantments) {
+        if (itemEnchantments == null || itemEnchantments.isEmpty()) return 0;
+        int found = 0;
+        for (Holder<Enchantment> holder : itemEnchantments.keySet()) {
+            found |= matchLevel(enchantments.get(holder), itemEnchantments.getLevel(holder));
+        }
+        return found;
+    }
+
+    private static int matchLevel(@Nullable List<Bound> bounds, int level) {
+        if (bounds == null) return 0;
+        int found = 0;
+        for (int i = 0; i < bounds.size(); i++) {
+            Bound bound = bounds.get(i);
+            if (level >= bound.min() && level <= bound.max()) {
+                found |= bound.mask();
+            }
+        }
+        return found;
+    }
+
+    private static <T> String componentText(@Nullable T component, Function<T, String> renderer) {
+        if (component == null) return "";
+        String text = COMPONENT_TEXT.getIfPresent(component);
+        if (text == null) {
+            text = renderer.apply(component).toLowerCase();
+            COMPONENT_TEXT.put(component, text);
+        }
+        return text;
+    }
+
+    private static String renderLore(ItemLore lore) {
+        StringBuilder sb = new StringBuilder();
+        for (Component line : lore.lines()) {
+            sb.append(line.getString()).append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static String renderEnchantments(ItemEnchantments enchantments) {
+        StringBuilder sb = new StringBuilder();
+        for (var entry : enchantments.entrySet()) {
+            sb.append(Enchantment.getFullname(entry.getKey(), entry.getIntValue()).getString()).append(' ');
+        }
+        return sb.toString();
+    }
+
+    public static final class Builder {
+        private final Map<Holder<Enchantment>, List<Bound>> enchantments = new HashMap<>();
+        private final Map<Holder<MobEffect>, List<Bound>> effects = new HashMap<>();
+        private final TermMatcher.Builder text = TermMatcher.builder();
+        private int termMasks;
+
+        private Builder() {}
+
+        public Builder add(String term, int mask) {
+            String name = term;
+            int min = 0;
+            int max = Integer.MAX_VALUE;
+            boolean bounded = false;
+
+            Matcher matcher = LEVEL_BOUND.matcher(term);
+            if (matcher.matches()) {
+                name = matcher.group(1);
+                int level = Integer.parseInt(matcher.group(3));
+                switch (matcher.group(2)) {
+                    case ">=" -> min = level;
+                    case ">" -> min = level + 1;
+                    case "<=" -> max = level;
+                    case "<" -> max = level - 1;
+                    default -> min = max = level;
+                }
+                bounded = true;
+            }
+
+            Bound bound = new Bound(mask, min, max);
+            for (Named<Enchantment> named : enchantmentNames) {
+                if (named.matches(name)) {
+                    enchantments.computeIfAbsent(named.holder(), h -> new ArrayList<>()).add(bound);
+                }
+            }
+            for (Named<MobEffect> named : effectNames) {
+                if (named.matches(name)) {
+                    effects.computeIfAbsent(named.holder(), h -> new ArrayList<>()).add(bound);
+                }
+            }
+            // Level bounds only apply to enchantments and effects, not to free text
+            if (!bounded) {
+                text.add(name, mask);
+            }
+            termMasks |= mask;
+            return this;
+        }
+
+        public Builder addAll(Iterable<String> terms, int mask) {
+            for (String term : terms) {
+                add(term, mask);
+            }
+            return this;
+        }
+
+        public ComponentPredicate build() {
+            return new ComponentPredicate(Map.copyOf(enchantments), Map.copyOf(effects), text.build(), termMasks);
+        }
+    }
+}
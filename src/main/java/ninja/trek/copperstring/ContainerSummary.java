@@ -0,0 +1,126 @@
+package ninja.trek.copperstring;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import ninja.trek.copperstring.ItemFilterCache.FilterResult;
+
+import java.util.BitSet;
+
+/**
+ * Compact summary of a container block entity's slots: which item raw IDs are
+ * present, the first empty slot and the slots holding partial stacks of each item.
+ * Marked dirty whenever the block entity reports a change and rebuilt on the
+ * next read, so unchanged chests are never rescanned. Match results per
+ * filter, including the first matching slot once it is known, are memoized
+ * until the next change.
+ */
+public final class ContainerSummary {
+
+    private static final int MAX_MEMOIZED_FILTERS = 16;
+
+    /** Memoized: no slot matches. */
+    public static final int NO_MATCH = -1;
+    /** Memoized: some slot matches, but which one has not been looked up yet. */
+    public static final int UNKNOWN_SLOT = -2;
+    /** Nothing memoized for the filter since the last change. */
+    public static final int NOT_MEMOIZED = -3;
+
+    private final BitSet presentItems = new BitSet();
+    private final Int2ObjectMap<IntArrayList> partialSlots = new Int2ObjectOpenHashMap<>();
+    private int firstEmptySlot = -1;
+    private boolean dirty = true;
+
+    // Keyed by identity: compiled filters are shared through the filter cache
+    private final Reference2IntOpenHashMap<FilterResult> matches = new Reference2IntOpenHashMap<>();
+
+    {
+        matches.defaultReturnValue(NOT_MEMOIZED);
+    }
+
+    public void markDirty() {
+        dirty = true;
+        matches.clear();
+    }
+
+    /**
+     * Returns the memoized first matching slot for the filter, {@link #NO_MATCH},
+     * {@link #UNKNOWN_SLOT}, or {@link #NOT_MEMOIZED} if the container changed since.
+     */
+    public int memoizedMatch(FilterResult filter) {
+        return matches.getInt(filter);
+    }
+
+    public void memoizeMatch(FilterResult filter, int slot) {
+        // Recompiled filters are new instances; keep the memo from growing on idle chests
+        if (matches.size() >= MAX_MEMOIZED_FILTERS && !matches.containsKey(filter)) {
+            matches.clear();
+        }
+        matches.put(filter, slot);
+    }
+
+    /**
+     * Rescans the container if it changed since the last read.
+     * Must be called with the container this summary is attached to.
+     */
+    public ContainerSummary refresh(Container container) {
+        if (!dirty) return this;
+
+        // Cleared first: reading slots can unpack a loot table, which marks the
+        // container changed again and leaves the summary dirty for the next read
+        dirty = false;
+        presentItems.clear();
+        partialSlots.clear();
+        firstEmptySlot = -1;
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            ItemStack stack = container.getItem(slot);
+            if (stack.isEmpty()) {
+                if (firstEmptySlot < 0) firstEmptySlot = slot;
+                continue;
+            }
+            int id = BuiltInRegistries.ITEM.getId(stack.getItem());
+            presentItems.set(id);
+            if (stack.getCount() < stack.getMaxStackSize()) {
+                partialSlots.computeIfAbsent(id, i -> new IntArrayList()).add(slot);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Raw IDs of the items in the container. Shared; must not be modified.
+     */
+    public BitSet presentItems() {
+        return presentItems;
+    }
+
+    public boolean contains(Item item) {
+        return presentItems.get(BuiltInRegistries.ITEM.getId(item));
+    }
+
+    /**
+     * Ascending slots holding a stack of the item below its max stack size.
+     * Components are not compared; callers check the stack in the slot.
+     */
+    public IntList partialSlots(Item item) {
+        IntList slots = partialSlots.get(BuiltInRegistries.ITEM.getId(item));
+        return slots != null ? slots : IntList.of();
+    }
+
+    /**
+     * Returns the lowest empty slot, or -1 if the container is full.
+     */
+    public int firstEmptySlot() {
+        return firstEmptySlot;
+    }
+
+    public boolean isEmpty() {
+        return presentItems.isEmpty();
+    }
+}
@@ -0,0 +1,8 @@
+package ninja.trek.copperstring;
+
+/**
+ * Implemented by mixins on container block entities that keep a {@link ContainerSummary}.
+ */
+public interface ContainerSummaryHolder {
+    ContainerSummary copperstring$getContainerSummary();
+}
@@ -26,7 +26,20 @@ public class CopperStringSearch implements ModInitializer {
 	@Override
 	public void onInitialize() {
 		config = ModConfig.load();
-		ServerLifecycleEvents.SERVER_STARTED.register(server -> ItemFilterCache.clearCache());
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			ItemPathIndex.rebuild();
+			ComponentPredicate.rebuildNames(server.registryAccess());
+			ItemTagIndex.clear();
+			ItemFilterCache.clearCache();
+		});
+		ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+			// Reloading rebinds item tags; filters built from the old membership are stale
+			ItemTagIndex.clear();
+			ItemFilterCache.invalidateTagFilters();
+		});
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> ItemFilterCache.logCacheStats());
 		ServerLifecycleEvents.SERVER_STOPPED.register(server -> ItemFilterCache.clearCache());
+		FilterWarmup.register();
+		ChestIndex.register();
 	}
 }
@@ -0,0 +1,52 @@
+package ninja.trek.copperstring;
+
+import net.minecraft.network.chat.Component;
+import ninja.trek.copperstring.ItemFilterCache.FilterResult;
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resolved filter attached to a named golem or container.
+ * Only re-resolves when the custom name component is replaced or the filter
+ * cache has been cleared since the filter was resolved, so the hot path does
+ * no string rendering or hashing. Cache misses compile in the background;
+ * until then the handle resolves to {@link ItemFilterCache#PENDING} and only
+ * checks the compile for completion, without going back to the cache.
+ */
+public final class FilterHandle {
+
+    @Nullable private Component name;
+    @Nullable private String key;
+    @Nullable private FilterResult filter;
+    @Nullable private CompletableFuture<FilterResult> compiling;
+    private int generation;
+
+    /**
+     * Returns the filter for the given custom name, {@link ItemFilterCache#PENDING}
+     * while it is still compiling, or null if there is no name.
+     */
+    @Nullable
+    public FilterResult resolve(@Nullable Component customName) {
+        if (customName == null) {
+            return null;
+        }
+        int currentGeneration = ItemFilterCache.getGeneration();
+        if (customName != name) {
+            name = customName;
+            key = customName.getString();
+            filter = null;
+            compiling = null;
+        }
+        if (generation != currentGeneration || filter == null || filter == ItemFilterCache.PENDING) {
+            if (filter == ItemFilterCache.PENDING && compiling != null && !compiling.isDone()) {
+                return filter;
+            }
+            FilterResult ready = ItemFilterCache.getFilterResultIfReady(key);
+            compiling = ready == null ? ItemFilterCache.compileAsync(key) : null;
+            filter = ready != null ? ready : ItemFilterCache.PENDING;
+            generation = currentGeneration;
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,8 @@
+package ninja.trek.copperstring;
+
+/**
+ * Implemented by mixins on objects that carry a resolved name filter.
+ */
+public interface FilterHandleHolder {
+    FilterHandle copperstring$getFilterHandle();
+}
@@ -0,0 +1,60 @@
+package ninja.trek.copperstring;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.animal.golem.CopperGolem;
+import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the filters of named copper golems and named containers as they are
+ * loaded, before any golem first ticks with them.
+ * Names are collected on the server thread and handed to the background
+ * compiler, which runs them in parallel on the common fork-join pool, at the
+ * end of the tick they were loaded in.
+ */
+public final class FilterWarmup {
+
+    private static final Set<String> PENDING = ConcurrentHashMap.newKeySet();
+
+    private FilterWarmup() {}
+
+    public static void register() {
+        ServerEntityEvents.ENTITY_LOAD.register((entity, level) -> {
+            if (entity instanceof CopperGolem golem) {
+                queue(golem.getCustomName());
+            }
+        });
+        ServerBlockEntityEvents.BLOCK_ENTITY_LOAD.register((blockEntity, level) -> {
+            if (blockEntity instanceof BaseContainerBlockEntity container) {
+                queue(container.getCustomName());
+            }
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> flush());
+    }
+
+    private static void queue(Component customName) {
+        if (customName != null) {
+            PENDING.add(customName.getString().toLowerCase());
+        }
+    }
+
+    private static void flush() {
+        if (PENDING.isEmpty()) return;
+
+        List<String> batch = new ArrayList<>(PENDING);
+        PENDING.removeAll(batch);
+        for (String name : batch) {
+            // Most loads carry names that are already compiled
+            if (!ItemFilterCache.isCached(name)) {
+                ItemFilterCache.compileAsync(name);
+            }
+        }
+    }
+}
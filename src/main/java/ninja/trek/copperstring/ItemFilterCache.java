@@ -1,45 +1,211 @@
 package ninja.trek.copperstring;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.core.component.DataComponents;
 import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.network.chat.Component;
-import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.Container;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
-import net.minecraft.world.item.alchemy.PotionContents;
 import net.minecraft.world.item.component.ItemContainerContents;
-import net.minecraft.world.item.component.ItemLore;
-import net.minecraft.world.item.enchantment.Enchantment;
-import net.minecraft.world.item.enchantment.ItemEnchantments;
 import net.minecraft.tags.ItemTags;
 import ninja.trek.copperstring.config.ModConfig;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ItemFilterCache {
 
+    /**
+     * Compiled form of a golem or chest name.
+     * Item sets are bitsets keyed by item raw ID; includeItems already has the
+     * regular exclude terms folded out, excludeItems is kept for items that are
+     * only included through a component term. All component terms share one
+     * predicate, tagged with INCLUDE or EXCLUDE. Wildcard is set for the
+     * fallback chest name "*". aliasDependencies lists every alias the name
+     * expanded through, nested ones included; usesTags is set when any #tag
+     * term contributed, so a datapack reload knows to recompile it.
+     */
     public record FilterResult(
-        Set<Item> includeItems,
-        List<String> regularExcludeTerms,
+        BitSet includeItems,
+        BitSet excludeItems,
         boolean hasRegularIncludes,
         boolean hasAnyIncludes,
-        List<String> componentIncludeTerms,
-        List<String> componentExcludeTerms
-    ) {}
+        ComponentPredicate componentPredicate,
+        boolean wildcard,
+        Set<String> aliasDependencies,
+        boolean usesTags
+    ) {
+        /**
+         * Approximate retained size in kilobytes, used as the cache weight.
+         */
+        int weightKilobytes() {
+            long bytes = 64L
+                + includeItems.size() / 8
+                + excludeItems.size() / 8
+                + componentPredicate.weightBytes();
+            return (int) Math.max(1, bytes / 1024);
+        }
 
-    private static final Map<String, FilterResult> CACHE = new ConcurrentHashMap<>();
+        /**
+         * True if only items in includeItems can match, so sources can be looked up by item.
+         */
+        public boolean matchesOnlyIncludedItems() {
+            return hasRegularIncludes && !componentPredicate.hasTerms(INCLUDE);
+        }
+    }
 
-    public static FilterResult getFilterResult(String name) {
-        return CACHE.computeIfAbsent(name.toLowerCase(), ItemFilterCache::computeFilterResult);
+    private static final int INCLUDE = 1;
+    private static final int EXCLUDE = 2;
+
+    /**
+     * Placeholder published while a filter is still compiling in the background.
+     * It matches nothing; golems hold back target selection and pickup until the
+     * real filter is ready, and don't count a pending chest as visited.
+     */
+    public static final FilterResult PENDING = new FilterResult(
+        new BitSet(), new BitSet(), false, true, ComponentPredicate.EMPTY, false, Set.of(), false);
+
+    /**
+     * Cached for a name whose filter failed to compile, so it is not retried
+     * (and logged) on every tick. Matches nothing; dropped on the next
+     * invalidation like any other entry.
+     */
+    private static final FilterResult FAILED = new FilterResult(
+        new BitSet(), new BitSet(), false, true, ComponentPredicate.EMPTY, false, Set.of(), false);
+
+    private static final Map<String, CompletableFuture<FilterResult>> COMPILING = new ConcurrentHashMap<>();
+
+    private static final Cache<ItemContainerContents, ContentsSummary> CONTENTS_SUMMARIES = CacheBuilder.newBuilder()
+        .weakKeys()
+        .maximumSize(4096)
+        .build();
+
+    private static final AtomicInteger generation = new AtomicInteger();
+    private static int cacheMaxKilobytes;
+    private static volatile LoadingCache<String, FilterResult> cache;
+
+    // Built on first use: ModConfig.load() clears the cache before the config is set
+    private static LoadingCache<String, FilterResult> cache() {
+        LoadingCache<String, FilterResult> current = cache;
+        if (current == null) {
+            synchronized (ItemFilterCache.class) {
+                if (cache == null) {
+                    cache = buildCache();
+                }
+                current = cache;
+            }
+        }
+        return current;
     }
 
-    public static Set<Item> getMatchingItems(String name) {
-        return getFilterResult(name).includeItems();
+    private static LoadingCache<String, FilterResult> buildCache() {
+        cacheMaxKilobytes = CopperStringSearch.getConfig().getFilterCacheMaxKilobytes();
+        return CacheBuilder.newBuilder()
+            .maximumWeight(cacheMaxKilobytes)
+            .weigher((String name, FilterResult result) -> result.weightKilobytes())
+            .recordStats()
+            .build(CacheLoader.from(ItemFilterCache::computeFilterResult));
+    }
+
+    /**
+     * Returns the compiled filter for the name if it is cached. On a miss, starts
+     * compiling it on the background executor and returns null; the result is
+     * published to the cache atomically once it is complete.
+     */
+    @Nullable
+    public static FilterResult getFilterResultIfReady(String name) {
+        String key = name.toLowerCase();
+        FilterResult result = cache().getIfPresent(key);
+        if (result == null) {
+            compileAsync(key);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the filter for the name is compiled and cached.
+     * Goes through the map view, so it does not count as a cache hit or miss.
+     */
+    public static boolean isCached(String name) {
+        return cache().asMap().containsKey(name.toLowerCase());
+    }
+
+    /**
+     * Compiles the filter for the name on the common fork-join pool.
+     * Concurrent requests for the same name share one compilation.
+     */
+    public static CompletableFuture<FilterResult> compileAsync(String name) {
+        String key = name.toLowerCase();
+        CompletableFuture<FilterResult> compiling = COMPILING.get(key);
+        if (compiling != null) return compiling;
+
+        CompletableFuture<FilterResult> created = new CompletableFuture<>();
+        compiling = COMPILING.putIfAbsent(key, created);
+        if (compiling != null) return compiling;
+
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                FilterResult result;
+                while (true) {
+                    int startGeneration = generation.get();
+                    result = cache().getUnchecked(key);
+                    if (generation.get() == startGeneration) break;
+                    // Invalidated mid-compile: the result may have used old aliases or tags
+                    cache().invalidate(key);
+                }
+                created.complete(result);
+            } catch (RuntimeException e) {
+                CopperStringSearch.LOGGER.error("Failed to compile name filter '{}'", key, e);
+                cache().put(key, FAILED);
+                created.complete(FAILED);
+            } finally {
+                COMPILING.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Incremented whenever the cache is cleared, so attached filter handles re-resolve.
+     */
+    public static int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Hit, miss, eviction and compile-time (load time) counters of the filter cache.
+     */
+    public static CacheStats getCacheStats() {
+        return cache().stats();
+    }
+
+    public static long getCacheSize() {
+        return cache().size();
+    }
+
+    public static void logCacheStats() {
+        CacheStats stats = getCacheStats();
+        CopperStringSearch.LOGGER.info(
+            "Filter cache: {} entries, {} hits, {} misses ({}% hit rate), {} evictions, {} ms compiling ({} us avg)",
+            getCacheSize(), stats.hitCount(), stats.missCount(), Math.round(stats.hitRate() * 100),
+            stats.evictionCount(), stats.totalLoadTime() / 1_000_000, Math.round(stats.averageLoadPenalty() / 1_000));
     }
 
     private static FilterResult computeFilterResult(String name) {
@@ -48,6 +214,9 @@ public class ItemFilterCache {
         List<String> excludeTerms = new ArrayList<>();
         List<String> componentIncludeTerms = new ArrayList<>();
         List<String> componentExcludeTerms = new ArrayList<>();
+        List<String> includeTags = new ArrayList<>();
+        List<String> excludeTags = new ArrayList<>();
+        Set<String> aliasDependencies = new HashSet<>();
 
         ModConfig config = CopperStringSearch.getConfig();
 
@@ -66,159 +235,189 @@ public class ItemFilterCache {
                     componentIncludeTerms.add(compTerm);
                 }
             } else if (term.startsWith("$")) {
-                String aliasName = term.substring(1);
-                List<String> aliasTerms = config.getAlias(aliasName);
-                if (aliasTerms != null) {
-                    if (exclude) {
-                        excludeTerms.addAll(aliasTerms);
-                    } else {
-                        includeTerms.addAll(aliasTerms);
-                    }
+                ModConfig.ResolvedAlias alias = config.resolveAlias(term.substring(1));
+                aliasDependencies.addAll(alias.dependencies());
+                for (String aliasTerm : alias.terms()) {
+                    addPathOrTagTerm(aliasTerm, exclude ? excludeTerms : includeTerms, exclude ? excludeTags : includeTags);
                 }
             } else if (!term.isEmpty()) {
-                if (exclude) {
-                    excludeTerms.add(term);
-                } else {
-                    includeTerms.add(term);
-                }
+                addPathOrTagTerm(term, exclude ? excludeTerms : includeTerms, exclude ? excludeTags : includeTags);
             }
         }
 
-        Set<Item> includeItems = new HashSet<>();
-        boolean hasRegularIncludes = !includeTerms.isEmpty();
+        BitSet includeItems = new BitSet(BuiltInRegistries.ITEM.size());
+        BitSet excludeItems = new BitSet(BuiltInRegistries.ITEM.size());
+        boolean hasRegularIncludes = !includeTerms.isEmpty() || !includeTags.isEmpty();
 
-        if (!hasRegularIncludes && componentIncludeTerms.isEmpty()) {
-            if (!excludeTerms.isEmpty() || !componentExcludeTerms.isEmpty()) {
-                // Only exclusions: start with all items
-                for (Item item : BuiltInRegistries.ITEM) {
-                    includeItems.add(item);
-                }
+        if (!includeTerms.isEmpty() || !excludeTerms.isEmpty()) {
+            // Each term resolves through the path index in time proportional to its matches
+            ItemPathIndex index = ItemPathIndex.get();
+            for (String term : excludeTerms) {
+                index.collect(term, excludeItems);
             }
-        } else if (hasRegularIncludes) {
-            // Collect items matching any regular include term
-            for (Item item : BuiltInRegistries.ITEM) {
-                String path = BuiltInRegistries.ITEM.getKey(item).getPath();
-                for (String term : includeTerms) {
-                    if (path.contains(term)) {
-                        includeItems.add(item);
-                        break;
-                    }
-                }
+            for (String term : includeTerms) {
+                index.collect(term, includeItems);
             }
         }
 
+        // Tag terms are precomputed membership sets, so they just OR in
+        for (String tag : excludeTags) {
+            excludeItems.or(ItemTagIndex.get(tag));
+        }
+        for (String tag : includeTags) {
+            includeItems.or(ItemTagIndex.get(tag));
+        }
+        includeItems.andNot(excludeItems);
+
         boolean hasAnyIncludes = hasRegularIncludes || !componentIncludeTerms.isEmpty();
+        ComponentPredicate componentPredicate = componentIncludeTerms.isEmpty() && componentExcludeTerms.isEmpty()
+            ? ComponentPredicate.EMPTY
+            : ComponentPredicate.builder()
+                .addAll(componentIncludeTerms, INCLUDE)
+                .addAll(componentExcludeTerms, EXCLUDE)
+                .build();
 
         return new FilterResult(
             includeItems,
-            excludeTerms,
+            excludeItems,
             hasRegularIncludes,
             hasAnyIncludes,
-            componentIncludeTerms,
-            componentExcludeTerms
+            componentPredicate,
+            "*".equals(name),
+            Set.copyOf(aliasDependencies),
+            !includeTags.isEmpty() || !excludeTags.isEmpty()
         );
     }
 
-    public static String getComponentSearchText(ItemStack stack) {
-        StringBuilder sb = new StringBuilder();
-
-        // Enchantments
-        ItemEnchantments enchantments = stack.get(DataComponents.ENCHANTMENTS);
-        if (enchantments != null) {
-            appendEnchantments(sb, enchantments);
+    /**
+     * Routes a path term to the substring terms, or a #tag term to the tag terms.
+     */
+    private static void addPathOrTagTerm(String term, List<String> pathTerms, List<String> tags) {
+        if (term.startsWith("#")) {
+            if (term.length() > 1) tags.add(term.substring(1));
+        } else {
+            pathTerms.add(term);
         }
+    }
 
-        // Stored enchantments (enchanted books)
-        ItemEnchantments storedEnchantments = stack.get(DataComponents.STORED_ENCHANTMENTS);
-        if (storedEnchantments != null) {
-            appendEnchantments(sb, storedEnchantments);
-        }
+    public static boolean stackMatchesFilter(FilterResult filter, ItemStack stack) {
+        int id = BuiltInRegistries.ITEM.getId(stack.getItem());
 
-        // Lore
-        ItemLore lore = stack.get(DataComponents.LORE);
-        if (lore != null) {
-            for (Component line : lore.lines()) {
-                sb.append(line.getString()).append(' ');
-            }
+        // Regular excludes are already folded out of includeItems, but items
+        // included through a component term still need the exclude bit test
+        if (filter.excludeItems().get(id)) {
+            return false;
         }
 
-        // Potion contents
-        PotionContents potionContents = stack.get(DataComponents.POTION_CONTENTS);
-        if (potionContents != null) {
-            for (MobEffectInstance effect : potionContents.getAllEffects()) {
-                sb.append(effect.getEffect().value().getDisplayName().getString()).append(' ');
-            }
+        boolean included = !filter.hasAnyIncludes() || filter.includeItems().get(id);
+        ComponentPredicate predicate = filter.componentPredicate();
+        if (included ? !predicate.hasTerms(EXCLUDE) : !predicate.hasTerms(INCLUDE)) {
+            return included;
         }
 
-        // Custom name
-        Component customName = stack.get(DataComponents.CUSTOM_NAME);
-        if (customName != null) {
-            sb.append(customName.getString()).append(' ');
+        // One pass over the stack's components for both component includes and excludes
+        int found = predicate.match(stack, EXCLUDE);
+        if ((found & EXCLUDE) != 0) {
+            return false;
         }
+        return included || (found & INCLUDE) != 0;
+    }
 
-        return sb.toString().toLowerCase();
+    /**
+     * Returns true if any stack in the summarized container matches the filter.
+     * Filters without component terms are answered from the presence bits alone;
+     * otherwise the slots are scanned, unless the bits already rule out a match.
+     * The answer is memoized on the summary until the container next changes.
+     */
+    public static boolean containerMatchesFilter(FilterResult filter, Container container, ContainerSummary summary) {
+        summary.refresh(container);
+        int memoized = summary.memoizedMatch(filter);
+        if (memoized == ContainerSummary.NOT_MEMOIZED) {
+            memoized = computeContainerMatch(filter, container, summary);
+            summary.memoizeMatch(filter, memoized);
+        }
+        return memoized != ContainerSummary.NO_MATCH;
     }
 
-    private static void appendEnchantments(StringBuilder sb, ItemEnchantments enchantments) {
-        for (var entry : enchantments.entrySet()) {
-            sb.append(Enchantment.getFullname(entry.getKey(), entry.getIntValue()).getString()).append(' ');
+    /**
+     * Returns the first slot of the summarized container whose stack matches the
+     * filter, or -1. A slot found while the container was last checked is reused
+     * if its stack still matches; a stack changed in place without marking the
+     * container changed sends it back to a scan.
+     */
+    public static int findMatchingSlot(FilterResult filter, Container container, ContainerSummary summary) {
+        summary.refresh(container);
+        int memoized = summary.memoizedMatch(filter);
+        if (memoized == ContainerSummary.NO_MATCH) {
+            return memoized;
         }
+        if (memoized >= 0 && memoized < container.getContainerSize()) {
+            ItemStack stack = container.getItem(memoized);
+            if (!stack.isEmpty() && stackMatchesFilter(filter, stack)) {
+                return memoized;
+            }
+        }
+        int slot = scanForMatch(filter, container);
+        summary.memoizeMatch(filter, slot >= 0 ? slot : ContainerSummary.NO_MATCH);
+        return slot;
     }
 
-    public static boolean stackMatchesFilter(FilterResult filter, ItemStack stack) {
-        boolean included;
-        String componentText = null;
+    private static int computeContainerMatch(FilterResult filter, Container container, ContainerSummary summary) {
+        if (summary.isEmpty()) return ContainerSummary.NO_MATCH;
 
+        BitSet present = summary.presentItems();
+        // Same inclusion rule as stackMatchesFilter: with any include, only included
+        // items count, so filters with no included items (PENDING) match nothing
+        boolean bitsMatch;
         if (filter.hasAnyIncludes()) {
-            included = filter.includeItems().contains(stack.getItem());
-
-            if (!included && !filter.componentIncludeTerms().isEmpty()) {
-                componentText = getComponentSearchText(stack);
-                for (String term : filter.componentIncludeTerms()) {
-                    if (componentText.contains(term)) {
-                        included = true;
-                        break;
-                    }
+            bitsMatch = present.intersects(filter.includeItems());
+        } else {
+            bitsMatch = false;
+            for (int id = present.nextSetBit(0); id >= 0; id = present.nextSetBit(id + 1)) {
+                if (!filter.excludeItems().get(id)) {
+                    bitsMatch = true;
+                    break;
                 }
             }
-        } else {
-            included = true;
         }
 
-        if (!included) return false;
-
-        // Check regular excludes against registry path
-        if (!filter.regularExcludeTerms().isEmpty()) {
-            String path = BuiltInRegistries.ITEM.getKey(stack.getItem()).getPath();
-            for (String term : filter.regularExcludeTerms()) {
-                if (path.contains(term)) {
-                    return false;
-                }
-            }
+        ComponentPredicate predicate = filter.componentPredicate();
+        if (predicate.isEmpty() || (!bitsMatch && !predicate.hasTerms(INCLUDE))) {
+            return bitsMatch ? ContainerSummary.UNKNOWN_SLOT : ContainerSummary.NO_MATCH;
         }
+        int slot = scanForMatch(filter, container);
+        return slot >= 0 ? slot : ContainerSummary.NO_MATCH;
+    }
 
-        // Check component excludes against tooltip text
-        if (!filter.componentExcludeTerms().isEmpty()) {
-            if (componentText == null) {
-                componentText = getComponentSearchText(stack);
-            }
-            for (String term : filter.componentExcludeTerms()) {
-                if (componentText.contains(term)) {
-                    return false;
-                }
+    /**
+     * Returns the first slot whose stack matches the filter, or -1.
+     */
+    public static int scanForMatch(FilterResult filter, Container container) {
+        for (int slot = 0; slot < container.getContainerSize(); slot++) {
+            ItemStack stack = container.getItem(slot);
+            if (!stack.isEmpty() && stackMatchesFilter(filter, stack)) {
+                return slot;
             }
         }
-
-        return true;
+        return -1;
     }
 
-    public static boolean itemMatchesFilter(String name, Item item) {
-        return getMatchingItems(name).contains(item);
-    }
+    /**
+     * Per-item summary of a container item's contents.
+     * The representative stacks are shared and must not be modified.
+     */
+    public record ContentsSummary(
+        @Nullable ItemStack uniformStack,
+        @Nullable ItemStack majorityStack,
+        Object2IntMap<Item> histogram,
+        int totalCount
+    ) {}
 
     /**
      * If the stack is a shulker box containing only one item type,
      * returns a single representative stack of that item type.
+     * With majority matching enabled, a shulker whose contents are mostly
+     * one item type is represented by that item type instead.
      * Otherwise returns the original stack unchanged.
      */
     public static ItemStack getEffectiveStack(ItemStack stack) {
@@ -226,24 +425,97 @@ public class ItemFilterCache {
             ItemContainerContents contents = stack.get(DataComponents.CONTAINER);
             if (contents == null) return stack;
 
-            Item uniformItem = null;
-            boolean hasItems = false;
-            for (ItemStack contained : contents.nonEmptyItems()) {
-                hasItems = true;
-                if (uniformItem == null) {
-                    uniformItem = contained.getItem();
-                } else if (uniformItem != contained.getItem()) {
-                    return stack; // mixed contents
-                }
+            ContentsSummary summary = getContentsSummary(contents);
+            if (summary.uniformStack() != null) {
+                return summary.uniformStack();
             }
-            if (hasItems) {
-                return new ItemStack(uniformItem, 1);
+            if (summary.majorityStack() != null && CopperStringSearch.getConfig().isShulkerMajorityMatching()) {
+                return summary.majorityStack();
             }
         }
         return stack;
     }
 
+    /**
+     * Returns the summary of the given contents, computed once per contents instance.
+     * Contents components are immutable, so weak identity keys are exact.
+     */
+    public static ContentsSummary getContentsSummary(ItemContainerContents contents) {
+        ContentsSummary summary = CONTENTS_SUMMARIES.getIfPresent(contents);
+        if (summary == null) {
+            summary = summarize(contents);
+            CONTENTS_SUMMARIES.put(contents, summary);
+        }
+        return summary;
+    }
+
+    private static ContentsSummary summarize(ItemContainerContents contents) {
+        Object2IntOpenHashMap<Item> histogram = new Object2IntOpenHashMap<>();
+        int totalCount = 0;
+        for (ItemStack contained : contents.nonEmptyItems()) {
+            histogram.addTo(contained.getItem(), contained.getCount());
+            totalCount += contained.getCount();
+        }
+
+        ItemStack uniformStack = null;
+        ItemStack majorityStack = null;
+        if (histogram.size() == 1) {
+            uniformStack = new ItemStack(histogram.keySet().iterator().next(), 1);
+            majorityStack = uniformStack;
+        } else {
+            for (Object2IntMap.Entry<Item> entry : histogram.object2IntEntrySet()) {
+                if (entry.getIntValue() * 2 > totalCount) {
+                    majorityStack = new ItemStack(entry.getKey(), 1);
+                    break;
+                }
+            }
+        }
+        return new ContentsSummary(uniformStack, majorityStack, Object2IntMaps.unmodifiable(histogram), totalCount);
+    }
+
+    /**
+     * Applies a config save: a changed cache bound rebuilds the cache, otherwise
+     * only the filters that expanded through an edited alias are dropped.
+     */
+    public static void onConfigSaved(Set<String> changedAliases) {
+        if (cache == null) return;
+
+        if (cacheMaxKilobytes != CopperStringSearch.getConfig().getFilterCacheMaxKilobytes()) {
+            clearCache();
+        } else if (!changedAliases.isEmpty()) {
+            invalidateAliases(changedAliases);
+        }
+    }
+
+    /**
+     * Drops every cached filter that depends on one of the given aliases.
+     * Attached handles re-resolve; unaffected filters are still cache hits.
+     */
+    public static void invalidateAliases(Set<String> aliases) {
+        cache().asMap().values().removeIf(result -> result == FAILED
+            || !Collections.disjoint(result.aliasDependencies(), aliases));
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Drops every cached filter with a #tag term, after tag membership changed.
+     */
+    public static void invalidateTagFilters() {
+        if (cache == null) return;
+        cache.asMap().values().removeIf(result -> result == FAILED || result.usesTags());
+        generation.incrementAndGet();
+    }
+
     public static void clearCache() {
-        CACHE.clear();
+        generation.incrementAndGet();
+        ComponentPredicate.clearTextCache();
+        if (cache == null) return;
+
+        // Rebuild when the configured bound changed, otherwise keep the running counters
+        if (cacheMaxKilobytes != CopperStringSearch.getConfig().getFilterCacheMaxKilobytes()) {
+            cache = buildCache();
+        } else {
+            cache.invalidateAll();
+        }
     }
 }
@@ -0,0 +1,123 @@
+package ninja.trek.copperstring;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+
+import java.util.BitSet;
+
+/**
+ * Substring index over item registry paths.
+ * Every distinct 1-, 2- and 3-character gram of every path maps to the sorted
+ * raw IDs of the items containing it. Short terms resolve directly from their
+ * posting list; longer terms verify only the candidates of their rarest trigram.
+ */
+public final class ItemPathIndex {
+
+    private static final int MAX_GRAM = 3;
+    private static final int[] NO_ITEMS = new int[0];
+
+    private static volatile ItemPathIndex current;
+
+    private final String[] paths;
+    private final Long2ObjectMap<int[]> postings;
+
+    private ItemPathIndex(String[] paths, Long2ObjectMap<int[]> postings) {
+        this.paths = paths;
+        this.postings = postings;
+    }
+
+    /**
+     * Returns the index for the current item registry, building it on first use.
+     * Filters can compile before the server has started, e.g. for spawn chunks.
+     */
+    public static ItemPathIndex get() {
+        ItemPathIndex index = current;
+        if (index == null) {
+            synchronized (ItemPathIndex.class) {
+                index = current;
+                if (index == null) {
+                    rebuild();
+                    index = current;
+                }
+            }
+        }
+        return index;
+    }
+
+    public static synchronized void rebuild() {
+        long start = System.nanoTime();
+        String[] paths = new String[BuiltInRegistries.ITEM.size()];
+        Long2ObjectMap<IntArrayList> building = new Long2ObjectOpenHashMap<>();
+        LongOpenHashSet seen = new LongOpenHashSet();
+
+        for (Item item : BuiltInRegistries.ITEM) {
+            int id = BuiltInRegistries.ITEM.getId(item);
+            String path = BuiltInRegistries.ITEM.getKey(item).getPath();
+            paths[id] = path;
+            seen.clear();
+            for (int i = 0; i < path.length(); i++) {
+                for (int len = 1; len <= MAX_GRAM && i + len <= path.length(); len++) {
+                    long gram = gram(path, i, len);
+                    if (seen.add(gram)) {
+                        building.computeIfAbsent(gram, g -> new IntArrayList()).add(id);
+                    }
+                }
+            }
+        }
+
+        // Raw IDs are visited in ascending order, so every posting list is already sorted
+        Long2ObjectMap<int[]> postings = new Long2ObjectOpenHashMap<>(building.size());
+        for (Long2ObjectMap.Entry<IntArrayList> entry : building.long2ObjectEntrySet()) {
+            postings.put(entry.getLongKey(), entry.getValue().toIntArray());
+        }
+
+        current = new ItemPathIndex(paths, postings);
+        CopperStringSearch.LOGGER.debug("Indexed {} item paths into {} grams in {} ms",
+            paths.length, postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Sets the bit of every item whose registry path contains the term.
+     */
+    public void collect(String term, BitSet out) {
+        if (term.isEmpty()) {
+            for (int id = 0; id < paths.length; id++) {
+                if (paths[id] != null) out.set(id);
+            }
+            return;
+        }
+
+        if (term.length() <= MAX_GRAM) {
+            for (int id : postings.getOrDefault(gram(term, 0, term.length()), NO_ITEMS)) {
+                out.set(id);
+            }
+            return;
+        }
+
+        int[] rarest = null;
+        for (int i = 0; i + MAX_GRAM <= term.length(); i++) {
+            int[] candidates = postings.getOrDefault(gram(term, i, MAX_GRAM), NO_ITEMS);
+            if (rarest == null || candidates.length < rarest.length) {
+                rarest = candidates;
+                if (rarest.length == 0) return;
+            }
+        }
+        for (int id : rarest) {
+            if (paths[id].contains(term)) {
+                out.set(id);
+            }
+        }
+    }
+
+    private static long gram(String s, int start, int len) {
+        long key = len;
+        for (int i = 0; i < len; i++) {
+            key = (key << 16) | s.charAt(start + i);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,51 @@
+package ninja.trek.copperstring;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.Identifier;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Item tag membership sets for #tag filter terms, keyed by item raw ID.
+ * Each tag is resolved once and cached until the next datapack reload.
+ */
+public final class ItemTagIndex {
+
+    private static final BitSet NO_ITEMS = new BitSet();
+    private static final Map<String, BitSet> TAGS = new ConcurrentHashMap<>();
+
+    private ItemTagIndex() {}
+
+    /**
+     * Returns the members of the item tag, e.g. "logs" or "c:ores"; the namespace
+     * defaults to minecraft. Unknown or malformed tags have no members.
+     * The returned set is shared and must not be modified.
+     */
+    public static BitSet get(String tag) {
+        return TAGS.computeIfAbsent(tag, ItemTagIndex::resolve);
+    }
+
+    private static BitSet resolve(String tag) {
+        Identifier id = Identifier.tryParse(tag);
+        if (id == null) {
+            return NO_ITEMS;
+        }
+
+        TagKey<Item> key = TagKey.create(Registries.ITEM, id);
+        BitSet members = new BitSet(BuiltInRegistries.ITEM.size());
+        for (Holder<Item> holder : BuiltInRegistries.ITEM.getTagOrEmpty(key)) {
+            members.set(BuiltInRegistries.ITEM.getId(holder.value()));
+        }
+        return members;
+    }
+
+    public static void clear() {
+        TAGS.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package ninja.trek.copperstring;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of terms.
+ * Each term carries a bit mask; matching a text in a single pass returns the
+ * union of the masks of every term found in it.
+ */
+public final class TermMatcher {
+
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] output;
+    private final int termMasks;
+
+    private TermMatcher(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] output, int termMasks) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.output = output;
+        this.termMasks = termMasks;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return termMasks == 0;
+    }
+
+    public int stateCount() {
+        return fail.length;
+    }
+
+    /**
+     * Scans the text once and returns the union of the masks of all matched terms.
+     * Stops early as soon as any bit of stopMask has been matched.
+     */
+    public int match(CharSequence text, int stopMask) {
+        int found = output[0];
+        if (termMasks == 0 || (found & stopMask) != 0) return found;
+
+        int state = 0;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            found |= output[state];
+            if ((found & stopMask) != 0) break;
+        }
+        return found;
+    }
+
+    private int step(int state, char c) {
+        int idx = Arrays.binarySearch(edgeChars[state], c);
+        return idx >= 0 ? edgeTargets[state][idx] : -1;
+    }
+
+    public static final class Builder {
+        private final List<StringBuilder> edgeChars = new ArrayList<>();
+        private final List<List<Integer>> edgeTargets = new ArrayList<>();
+        private final List<Integer> output = new ArrayList<>();
+        private int termMasks;
+
+        private Builder() {
+            newState();
+        }
+
+        public Builder add(String term, int mask) {
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                int idx = edgeChars.get(state).indexOf(String.valueOf(c));
+                if (idx >= 0) {
+                    state = edgeTargets.get(state).get(idx);
+                } else {
+                    int next = newState();
+                    edgeChars.get(state).append(c);
+                    edgeTargets.get(state).add(next);
+                    state = next;
+                }
+            }
+            output.set(state, output.get(state) | mask);
+            termMasks |= mask;
+            return this;
+        }
+
+        private int newState() {
+            edgeChars.add(new StringBuilder());
+            edgeTargets.add(new ArrayList<>());
+            output.add(0);
+            return output.size() - 1;
+        }
+
+        public TermMatcher build() {
+            int size = output.size();
+            char[][] chars = new char[size][];
+            int[][] targets = new int[size][];
+            int[] out = new int[size];
+
+            // Freeze edges into sorted arrays for binary search
+            for (int s = 0; s < size; s++) {
+                String edges = edgeChars.get(s).toString();
+                List<Integer> to = edgeTargets.get(s);
+                Integer[] order = new Integer[edges.length()];
+                for (int i = 0; i < order.length; i++) order[i] = i;
+                Arrays.sort(order, (a, b) -> Character.compare(edges.charAt(a), edges.charAt(b)));
+                chars[s] = new char[order.length];
+                targets[s] = new int[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    chars[s][i] = edges.charAt(order[i]);
+                    targets[s][i] = to.get(order[i]);
+                }
+                out[s] = output.get(s);
+            }
+
+            // Breadth-first failure links; outputs inherit from their failure state
+            int[] fail = new int[size];
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                queue.add(child);
+            }
+            TermMatcher partial = new TermMatcher(chars, targets, fail, out, termMasks);
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int i = 0; i < chars[s].length; i++) {
+                    char c = chars[s][i];
+                    int child = targets[s][i];
+                    int f = fail[s];
+                    int next;
+                    while ((next = partial.step(f, c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = next >= 0 && next != child ? next : 0;
+                    out[child] |= out[fail[child]];
+                    queue.add(child);
+                }
+            }
+            return partial;
+        }
+    }
+}
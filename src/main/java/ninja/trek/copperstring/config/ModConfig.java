@@ -12,27 +12,139 @@ import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ModConfig {
     private static final Path CONFIG_PATH = FabricLoader.getInstance()
             .getConfigDir().resolve("copper-string-search.json");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    private Map<String, List<String>> aliases = new LinkedHashMap<>();
+    // Replaced, never modified, once loaded: filters compile on background threads
+    private volatile Map<String, List<String>> aliases = new LinkedHashMap<>();
+    private int filterCacheMaxKilobytes = 8192;
+    private boolean shulkerMajorityMatching = false;
+    private int golemCarryCapacity = 16;
+    private boolean mergePickupSlots = false;
+
+    // Memoized alias expansions tagged with the alias generation they were built
+    // under, and the aliases edited since the last save (not serialized)
+    private transient Map<String, MemoizedAlias> resolvedAliases = new ConcurrentHashMap<>();
+    private transient AtomicInteger aliasGeneration = new AtomicInteger();
+    private transient Set<String> changedAliases = new HashSet<>();
+
+    /**
+     * Fully expanded terms of an alias, with every alias the expansion went
+     * through (the alias itself included).
+     */
+    public record ResolvedAlias(List<String> terms, Set<String> dependencies) {}
+
+    private record MemoizedAlias(ResolvedAlias alias, int generation) {}
 
     public Map<String, List<String>> getAliases() {
-        return aliases;
+        return Collections.unmodifiableMap(aliases);
     }
 
     public List<String> getAlias(String name) {
         return aliases.get(name);
     }
 
+    /**
+     * Replaces the terms of an alias. Called on the server or client thread while
+     * filters may be compiling: the alias map is swapped for an edited copy, then
+     * the generation moves on so every memoized expansion is rebuilt.
+     */
     public void setAlias(String name, List<String> terms) {
-        aliases.put(name, new ArrayList<>(terms));
+        if (terms.equals(aliases.get(name))) return;
+
+        Map<String, List<String>> edited = new LinkedHashMap<>(aliases);
+        edited.put(name, new ArrayList<>(terms));
+        aliases = edited;
+        aliasGeneration.incrementAndGet();
+        changedAliases.add(name);
+    }
+
+    /**
+     * Expands an alias, following nested $alias terms. Each alias is resolved once
+     * and memoized until the next alias edit; an expansion built from aliases that
+     * were edited meanwhile carries an old generation and is rebuilt on the next
+     * read. Cyclic references are skipped. Unknown aliases resolve to no terms but
+     * still record the dependency.
+     */
+    public ResolvedAlias resolveAlias(String name) {
+        // Generation first: a current generation guarantees the matching alias map
+        int generation = aliasGeneration.get();
+        return resolveAlias(name, aliases, generation, new HashSet<>());
+    }
+
+    private ResolvedAlias resolveAlias(String name, Map<String, List<String>> aliases, int generation, Set<String> visiting) {
+        MemoizedAlias memo = resolvedAliases.get(name);
+        if (memo != null && memo.generation() == generation) {
+            return memo.alias();
+        }
+        if (!visiting.add(name)) {
+            CopperStringSearch.LOGGER.warn("Alias ${} references itself, ignoring the cycle", name);
+            return new ResolvedAlias(List.of(), Set.of(name));
+        }
+
+        List<String> terms = new ArrayList<>();
+        Set<String> dependencies = new HashSet<>();
+        dependencies.add(name);
+        List<String> aliasTerms = aliases.get(name);
+        if (aliasTerms != null) {
+            for (String term : aliasTerms) {
+                if (term.startsWith("$")) {
+                    ResolvedAlias nested = resolveAlias(term.substring(1), aliases, generation, visiting);
+                    terms.addAll(nested.terms());
+                    dependencies.addAll(nested.dependencies());
+                } else {
+                    terms.add(term);
+                }
+            }
+        }
+        visiting.remove(name);
+
+        ResolvedAlias resolved = new ResolvedAlias(List.copyOf(terms), Set.copyOf(dependencies));
+        resolvedAliases.put(name, new MemoizedAlias(resolved, generation));
+        return resolved;
+    }
+
+    public int getFilterCacheMaxKilobytes() {
+        return filterCacheMaxKilobytes;
+    }
+
+    public void setFilterCacheMaxKilobytes(int filterCacheMaxKilobytes) {
+        this.filterCacheMaxKilobytes = filterCacheMaxKilobytes;
+    }
+
+    public boolean isShulkerMajorityMatching() {
+        return shulkerMajorityMatching;
+    }
+
+    public void setShulkerMajorityMatching(boolean shulkerMajorityMatching) {
+        this.shulkerMajorityMatching = shulkerMajorityMatching;
+    }
+
+    public int getGolemCarryCapacity() {
+        return golemCarryCapacity;
+    }
+
+    public void setGolemCarryCapacity(int golemCarryCapacity) {
+        this.golemCarryCapacity = golemCarryCapacity;
+    }
+
+    public boolean isMergePickupSlots() {
+        return mergePickupSlots;
+    }
+
+    public void setMergePickupSlots(boolean mergePickupSlots) {
+        this.mergePickupSlots = mergePickupSlots;
     }
 
     public static ModConfig createDefault() {
@@ -126,7 +238,8 @@ public class ModConfig {
         } catch (IOException e) {
             CopperStringSearch.LOGGER.error("Failed to save config", e);
         }
-        ItemFilterCache.clearCache();
+        ItemFilterCache.onConfigSaved(Set.copyOf(changedAliases));
+        changedAliases.clear();
     }
 
     public static ModConfig load() {
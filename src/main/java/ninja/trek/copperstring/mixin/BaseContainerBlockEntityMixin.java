@@ -0,0 +1,32 @@
+package ninja.trek.copperstring.mixin;
+
+import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+import ninja.trek.copperstring.ContainerSummary;
+import ninja.trek.copperstring.ContainerSummaryHolder;
+import ninja.trek.copperstring.FilterHandle;
+import ninja.trek.copperstring.FilterHandleHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Attaches a resolved name filter and a contents summary to every container
+ * block entity, so named chests (and each half of a double chest) keep their
+ * compiled filter and golems can check contents without a slot scan.
+ * A replaced block entity starts with a fresh handle and summary.
+ */
+@Mixin(BaseContainerBlockEntity.class)
+public class BaseContainerBlockEntityMixin implements FilterHandleHolder, ContainerSummaryHolder {
+
+    @Unique private final FilterHandle filterHandle = new FilterHandle();
+    @Unique private final ContainerSummary containerSummary = new ContainerSummary();
+
+    @Override
+    public FilterHandle copperstring$getFilterHandle() {
+        return filterHandle;
+    }
+
+    @Override
+    public ContainerSummary copperstring$getContainerSummary() {
+        return containerSummary;
+    }
+}
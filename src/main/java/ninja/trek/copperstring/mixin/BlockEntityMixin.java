@@ -0,0 +1,27 @@
+package ninja.trek.copperstring.mixin;
+
+import net.minecraft.world.level.block.entity.BlockEntity;
+import ninja.trek.copperstring.ChestIndex;
+import ninja.trek.copperstring.ContainerSummaryHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Marks the contents summary of a container block entity dirty whenever it
+ * reports a change, and queues copper chests for the chest index.
+ * Vanilla calls setChanged after every slot update, including in-place
+ * stack edits by hoppers, menus and golems.
+ */
+@Mixin(BlockEntity.class)
+public class BlockEntityMixin {
+
+    @Inject(method = "setChanged()V", at = @At("HEAD"))
+    private void markSummaryDirty(CallbackInfo ci) {
+        if ((Object) this instanceof ContainerSummaryHolder holder) {
+            holder.copperstring$getContainerSummary().markDirty();
+            ChestIndex.onChanged((BlockEntity) (Object) this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ninja.trek.copperstring.mixin;
+
+import net.minecraft.world.entity.animal.golem.CopperGolem;
+import ninja.trek.copperstring.FilterHandle;
+import ninja.trek.copperstring.FilterHandleHolder;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Attaches a resolved name filter to every copper golem.
+ */
+@Mixin(CopperGolem.class)
+public class CopperGolemMixin implements FilterHandleHolder {
+
+    @Unique private final FilterHandle filterHandle = new FilterHandle();
+
+    @Override
+    public FilterHandle copperstring$getFilterHandle() {
+        return filterHandle;
+    }
+}
@@ -3,6 +3,8 @@ package ninja.trek.copperstring.mixin;
 import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
 import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
 import com.llamalad7.mixinextras.sugar.Local;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.GlobalPos;
 import net.minecraft.server.level.ServerLevel;
@@ -13,12 +15,25 @@ import net.minecraft.world.entity.ai.memory.MemoryModuleType;
 import net.minecraft.world.entity.animal.golem.CopperGolem;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.ChestBlock;
 import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.ChestType;
 import net.minecraft.world.entity.ai.behavior.TransportItemsBetweenContainers;
 import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import ninja.trek.copperstring.ChestIndex;
+import ninja.trek.copperstring.CopperStringSearch;
+import ninja.trek.copperstring.ContainerSummary;
+import ninja.trek.copperstring.ContainerSummaryHolder;
+import ninja.trek.copperstring.FilterHandleHolder;
 import ninja.trek.copperstring.ItemFilterCache;
 import ninja.trek.copperstring.ItemFilterCache.FilterResult;
+import ninja.trek.copperstring.config.ModConfig;
+import org.jspecify.annotations.Nullable;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
@@ -27,26 +42,229 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 @Mixin(TransportItemsBetweenContainers.class)
-public class TransportItemsMixin {
+public abstract class TransportItemsMixin {
 
     @Shadow private TransportItemsBetweenContainers.TransportItemTarget target;
     @Shadow private TransportItemsBetweenContainers.TransportItemState state;
     @Shadow private int ticksSinceReachingTarget;
+    @Shadow @Final private Predicate<BlockState> sourceBlockType;
+    @Shadow @Final private Predicate<BlockState> destinationBlockType;
+
+    @Shadow
+    private static Set<GlobalPos> getVisitedPositions(PathfinderMob pathfinderMob) {
+        throw new AssertionError();
+    }
+
+    @Shadow
+    private static Set<GlobalPos> getUnreachablePositions(PathfinderMob pathfinderMob) {
+        throw new AssertionError();
+    }
+
+    @Shadow
+    protected abstract AABB getTargetSearchArea(PathfinderMob pathfinderMob);
+
+    @Shadow
+    protected abstract TransportItemsBetweenContainers.TransportItemTarget isTargetValidToPick(
+        PathfinderMob pathfinderMob, Level level, BlockEntity blockEntity, Set<GlobalPos> set, Set<GlobalPos> set2, AABB aabb);
 
-    @Unique private static final Map<UUID, BlockPos> wildcardPositions = new ConcurrentHashMap<>();
     @Unique private static final Set<UUID> forceFallbackDeposit = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // Set when the last target search already validated every wildcard chest in vain
+    @Unique private boolean wildcardsSearched;
+
+    /**
+     * Holds back picking a new source for an empty-handed golem whose filter is
+     * still compiling in the background, so it neither picks up unfiltered items
+     * nor gives up on every container and enters cooldown. Golems carrying an
+     * item or still heading for a valid target carry on as usual.
+     */
+    @Inject(
+        method = "updateInvalidTarget",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/entity/ai/behavior/TransportItemsBetweenContainers;getTransportTarget(Lnet/minecraft/server/level/ServerLevel;Lnet/minecraft/world/entity/PathfinderMob;)Ljava/util/Optional;"
+        ),
+        cancellable = true
+    )
+    private void waitForFilter(ServerLevel serverLevel, PathfinderMob pathfinderMob, CallbackInfoReturnable<Boolean> cir) {
+        if (pathfinderMob.getMainHandItem().isEmpty() && getGolemFilter(pathfinderMob) == ItemFilterCache.PENDING) {
+            cir.setReturnValue(true);
+        }
+    }
+
+    /**
+     * Finds the transport target of a copper golem through the chest index,
+     * instead of walking every block entity in the chunks around it.
+     * A golem whose filter only matches listed items validates just the source
+     * chests holding one of them, nearest first, until one is valid. Otherwise
+     * the source or destination chests in the search area, as told apart by this
+     * behavior's block predicates, are validated nearest first until one is valid;
+     * named destinations whose filter rejects the held item are skipped without
+     * walking there. Wildcard (*) chests are kept back until no other destination
+     * is left, then the nearest valid one is targeted in fallback mode.
+     * Other mobs use vanilla behavior.
+     */
+    @Inject(method = "getTransportTarget", at = @At("HEAD"), cancellable = true)
+    private void findIndexedTarget(ServerLevel serverLevel, PathfinderMob pathfinderMob,
+                                   CallbackInfoReturnable<Optional<TransportItemsBetweenContainers.TransportItemTarget>> cir) {
+        if (!(pathfinderMob instanceof CopperGolem)) return;
+        wildcardsSearched = false;
+
+        ChestIndex index = ChestIndex.get(serverLevel);
+        AABB area = getTargetSearchArea(pathfinderMob);
+        Vec3 origin = pathfinderMob.position();
+        Set<GlobalPos> visited = getVisitedPositions(pathfinderMob);
+        Set<GlobalPos> unreachable = getUnreachablePositions(pathfinderMob);
+        boolean pickingUp = pathfinderMob.getMainHandItem().isEmpty();
+
+        FilterResult filter = pickingUp ? getGolemFilter(pathfinderMob) : null;
+        if (filter != null && filter.matchesOnlyIncludedItems()) {
+            LongArrayList candidates = new LongArrayList();
+            for (long pos : index.chestsHolding(filter.includeItems())) {
+                if (area.contains(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos))
+                    && sourceBlockType.test(serverLevel.getBlockState(BlockPos.of(pos)))) {
+                    candidates.add(pos);
+                }
+            }
+            candidates.unstableSort((long a, long b) -> Double.compare(distToCenterSqr(a, origin), distToCenterSqr(b, origin)));
+
+            for (int i = 0; i < candidates.size(); i++) {
+                BlockEntity blockEntity = serverLevel.getBlockEntity(BlockPos.of(candidates.getLong(i)));
+                if (blockEntity == null) continue;
+                TransportItemsBetweenContainers.TransportItemTarget target =
+                    isTargetValidToPick(pathfinderMob, serverLevel, blockEntity, visited, unreachable, area);
+                if (target != null) {
+                    cir.setReturnValue(Optional.of(target));
+                    return;
+                }
+            }
+            cir.setReturnValue(Optional.empty());
+            return;
+        }
+
+        // Validation is the expensive part, so order by distance first and stop at the
+        // first valid chest
+        List<ChestBlockEntity> chests = index.chestsIn(area, pickingUp ? sourceBlockType : destinationBlockType);
+        chests.sort(Comparator.comparingDouble(chest -> chest.getBlockPos().distToCenterSqr(origin)));
+        ItemStack effectiveStack = pickingUp ? ItemStack.EMPTY : ItemFilterCache.getEffectiveStack(pathfinderMob.getMainHandItem());
+        boolean fallback = forceFallbackDeposit.contains(pathfinderMob.getUUID());
+        List<ChestBlockEntity> wildcards = new ArrayList<>();
+        for (ChestBlockEntity chest : chests) {
+            if (!pickingUp) {
+                // Named chests turn away what their filter rejects, as filterDeposit does;
+                // wildcard chests only accept in fallback mode
+                FilterResult chestFilter = chestFilter(serverLevel, chest);
+                if (chestFilter != null && chestFilter.wildcard()) {
+                    if (!fallback) {
+                        wildcards.add(chest);
+                        continue;
+                    }
+                } else if (chestFilter != null && (chestFilter == ItemFilterCache.PENDING
+                    || !ItemFilterCache.stackMatchesFilter(chestFilter, effectiveStack))) {
+                    continue;
+                }
+            }
+            TransportItemsBetweenContainers.TransportItemTarget target =
+                isTargetValidToPick(pathfinderMob, serverLevel, chest, visited, unreachable, area);
+            if (target != null) {
+                cir.setReturnValue(Optional.of(target));
+                return;
+            }
+        }
+
+        // No other destination left: go straight to the nearest wildcard chest
+        for (ChestBlockEntity chest : wildcards) {
+            TransportItemsBetweenContainers.TransportItemTarget target =
+                isTargetValidToPick(pathfinderMob, serverLevel, chest, visited, unreachable, area);
+            if (target != null) {
+                forceFallbackDeposit.add(pathfinderMob.getUUID());
+                cir.setReturnValue(Optional.of(target));
+                return;
+            }
+        }
+        wildcardsSearched = !pickingUp;
+        cir.setReturnValue(Optional.empty());
+    }
+
+    /**
+     * Returns the name filter of a chest, or null if it is not named. Double
+     * chests are resolved from both halves in the order of the container the
+     * golem deposits into, so target selection and filterDeposit agree.
+     * Unless the chest was renamed this is a reference comparison.
+     */
+    @Unique
+    private static FilterResult chestFilter(Level level, ChestBlockEntity chest) {
+        BlockState state = chest.getBlockState();
+        ChestType type = state.getValueOrElse(ChestBlock.TYPE, ChestType.SINGLE);
+        if (type == ChestType.SINGLE
+            || !(level.getBlockEntity(ChestBlock.getConnectedBlockPos(chest.getBlockPos(), state)) instanceof BaseContainerBlockEntity other)) {
+            return resolveFilter(chest);
+        }
+        // The right half is the first container of a double chest
+        return type == ChestType.RIGHT ? doubleChestFilter(chest, other) : doubleChestFilter(other, chest);
+    }
+
+    /**
+     * Returns the filter of the first named half of a double chest, first half first.
+     */
+    @Unique
+    private static FilterResult doubleChestFilter(Container first, Container second) {
+        FilterResult filter = first instanceof BaseContainerBlockEntity bcbe1 ? resolveFilter(bcbe1) : null;
+        if (filter == null && second instanceof BaseContainerBlockEntity bcbe2) {
+            filter = resolveFilter(bcbe2);
+        }
+        return filter;
+    }
+
+    /**
+     * Returns the nearest wildcard (*) chest in the golem's search area that is
+     * a valid target, or null.
+     */
+    @Unique
+    private TransportItemsBetweenContainers.TransportItemTarget findWildcardTarget(ServerLevel serverLevel, PathfinderMob pathfinderMob) {
+        Vec3 origin = pathfinderMob.position();
+        AABB area = getTargetSearchArea(pathfinderMob);
+        Set<GlobalPos> visited = getVisitedPositions(pathfinderMob);
+        Set<GlobalPos> unreachable = getUnreachablePositions(pathfinderMob);
+        List<ChestBlockEntity> chests = ChestIndex.get(serverLevel).chestsIn(area, destinationBlockType);
+        chests.sort(Comparator.comparingDouble(chest -> chest.getBlockPos().distToCenterSqr(origin)));
+        for (ChestBlockEntity chest : chests) {
+            FilterResult filter = chestFilter(serverLevel, chest);
+            if (filter != null && filter.wildcard()) {
+                TransportItemsBetweenContainers.TransportItemTarget target =
+                    isTargetValidToPick(pathfinderMob, serverLevel, chest, visited, unreachable, area);
+                if (target != null) {
+                    return target;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Unique
+    private static double distToCenterSqr(long pos, Vec3 origin) {
+        double dx = BlockPos.getX(pos) + 0.5 - origin.x;
+        double dy = BlockPos.getY(pos) + 0.5 - origin.y;
+        double dz = BlockPos.getZ(pos) + 0.5 - origin.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
 
     /**
      * Wraps the pickupItemFromContainer call inside pickUpItems to only pick up
-     * items matching the copper golem's custom name filter.
-     * Unnamed golems use vanilla behavior.
+     * items matching the copper golem's custom name filter, and to apply the
+     * configured carry capacity and slot merging.
+     * Unnamed golems use vanilla behavior at the default settings.
      */
     @WrapOperation(
         method = "pickUpItems",
@@ -57,29 +275,62 @@ public class TransportItemsMixin {
     )
     private ItemStack filterPickup(Container container, Operation<ItemStack> original,
                                    @Local(argsOnly = true) PathfinderMob mob) {
-        if (mob instanceof CopperGolem copperGolem && copperGolem.hasCustomName()) {
-            String name = copperGolem.getCustomName().getString();
-            FilterResult filter = ItemFilterCache.getFilterResult(name);
-            return filteredPickupFromContainer(container, filter);
+        FilterResult filter = getGolemFilter(mob);
+        if (filter == ItemFilterCache.PENDING) {
+            return ItemStack.EMPTY;
         }
-        return original.call(container);
+        ModConfig config = CopperStringSearch.getConfig();
+        int capacity = config.getGolemCarryCapacity();
+        if (filter != null) {
+            return pickupFromSlot(container, findMatchingSlot(container, filter), capacity, config.isMergePickupSlots());
+        }
+        if (capacity == 16 && !config.isMergePickupSlots()) {
+            return original.call(container);
+        }
+        return pickupFromSlot(container, firstNonEmptySlot(container), capacity, config.isMergePickupSlots());
+    }
+
+    /**
+     * Takes up to the carry capacity from the slot, bounded by the item's stack size.
+     * With merging, later slots holding the same item and components top it up;
+     * those stacks match the filter whenever the first one does.
+     */
+    @Unique
+    private static ItemStack pickupFromSlot(Container container, int slot, int capacity, boolean merge) {
+        if (slot < 0) {
+            return ItemStack.EMPTY;
+        }
+        ItemStack first = container.getItem(slot);
+        int limit = Math.min(capacity, first.getMaxStackSize());
+        ItemStack taken = container.removeItem(slot, Math.min(first.getCount(), limit));
+        if (taken.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
+        if (merge) {
+            for (int i = slot + 1; i < container.getContainerSize() && taken.getCount() < limit; i++) {
+                ItemStack next = container.getItem(i);
+                if (!next.isEmpty() && ItemStack.isSameItemSameComponents(next, taken)) {
+                    taken.grow(container.removeItem(i, limit - taken.getCount()).getCount());
+                }
+            }
+        }
+        return taken;
     }
 
-    private static ItemStack filteredPickupFromContainer(Container container, FilterResult filter) {
-        int i = 0;
-        for (ItemStack itemStack : container) {
-            if (!itemStack.isEmpty() && ItemFilterCache.stackMatchesFilter(filter, itemStack)) {
-                int j = Math.min(itemStack.getCount(), 16);
-                return container.removeItem(i, j);
+    @Unique
+    private static int firstNonEmptySlot(Container container) {
+        for (int i = 0; i < container.getContainerSize(); i++) {
+            if (!container.getItem(i).isEmpty()) {
+                return i;
             }
-            i++;
         }
-        return ItemStack.EMPTY;
+        return -1;
     }
 
     /**
      * Filters pickup target selection:
-     * Skips source chests with no items matching the copper golem's name filter.
+     * Skips source chests with no items matching the copper golem's name filter,
+     * checked against each chest's contents summary instead of its slots.
      * Unnamed golems use vanilla behavior.
      */
     @Inject(
@@ -96,19 +347,9 @@ public class TransportItemsMixin {
         boolean isPickingUp = mob.getMainHandItem().isEmpty();
 
         if (isPickingUp) {
-            if (mob instanceof CopperGolem cg && cg.hasCustomName()) {
-                String name = cg.getCustomName().getString();
-                FilterResult filter = ItemFilterCache.getFilterResult(name);
-                boolean hasMatch = false;
-                for (ItemStack stack : result.container()) {
-                    if (!stack.isEmpty() && ItemFilterCache.stackMatchesFilter(filter, stack)) {
-                        hasMatch = true;
-                        break;
-                    }
-                }
-                if (!hasMatch) {
-                    cir.setReturnValue(null);
-                }
+            FilterResult filter = getGolemFilter(mob);
+            if (filter != null && !containerHasMatch(result.container(), filter)) {
+                cir.setReturnValue(null);
             }
         }
     }
@@ -117,7 +358,7 @@ public class TransportItemsMixin {
      * Wraps the matchesLeavingItemsRequirement check during deposit.
      * For named chests, the chest name filter replaces vanilla's item-matching check,
      * so an empty named chest won't accept items that don't match its filter.
-     * Wildcard (*) chests record their position for fallback, or accept if in fallback mode.
+     * Wildcard (*) chests only accept in fallback mode.
      * Unnamed chests use vanilla behavior.
      */
     @WrapOperation(
@@ -128,34 +369,115 @@ public class TransportItemsMixin {
         )
     )
     private boolean filterDeposit(PathfinderMob mob, Container container, Operation<Boolean> original) {
-        String chestName = getContainerCustomName(container);
+        FilterResult chestFilter = getContainerFilter(container);
         ItemStack heldStack = mob.getMainHandItem();
         ItemStack effectiveStack = ItemFilterCache.getEffectiveStack(heldStack);
 
-        if (chestName != null) {
-            if ("*".equals(chestName) && mob instanceof CopperGolem cg) {
-                UUID golemId = cg.getUUID();
-                if (forceFallbackDeposit.contains(golemId)) {
-                    return true;
-                }
-                // Use the target's own pos (the half getTransportTarget selected
-                // and the golem pathed to) rather than getContainerBlockPos which
-                // may return the other half of a double chest.
-                if (this.target != null) {
-                    wildcardPositions.put(golemId, this.target.pos());
-                }
+        if (chestFilter != null) {
+            if (chestFilter == ItemFilterCache.PENDING) {
+                // Still compiling: don't accept anything this visit, but leave the
+                // chest open to be picked again once its filter is ready
+                forgetVisitedTarget(mob);
+                return false;
+            }
+            if (chestFilter.wildcard() && forceFallbackDeposit.contains(mob.getUUID())) {
+                return true;
             }
-            FilterResult chestFilter = ItemFilterCache.getFilterResult(chestName);
             return ItemFilterCache.stackMatchesFilter(chestFilter, effectiveStack);
         }
 
-        // Unnamed chest: if effective stack differs, use custom matching
+        // Unnamed chest: accepted if empty or already holding the (effective) item,
+        // read from the chest summaries when available
+        List<Container> parts = summarizedParts(container);
+        if (parts != null) {
+            return isEmptyOrHolds(parts, effectiveStack);
+        }
         if (effectiveStack != heldStack) {
             return hasEffectiveItemMatch(container, effectiveStack);
         }
         return original.call(mob, container);
     }
 
+    /**
+     * Removes the current target from the visited positions recorded when it was
+     * picked, so target selection can pick it again.
+     */
+    @Unique
+    private void forgetVisitedTarget(PathfinderMob mob) {
+        if (this.target == null) return;
+        Set<GlobalPos> visited = new HashSet<>(getVisitedPositions(mob));
+        if (visited.remove(new GlobalPos(mob.level().dimension(), this.target.pos()))) {
+            mob.getBrain().setMemoryWithExpiry(MemoryModuleType.VISITED_BLOCK_POSITIONS, visited, 6000L);
+        }
+    }
+
+    /**
+     * Replaces the slot-by-slot addItemsToContainer with one driven by the chest
+     * summaries: vanilla fills, in slot order, partial stacks of the held item
+     * until it reaches the first empty slot, then puts the rest there. The
+     * summaries give both directly; each slot is re-checked before writing, and
+     * a slot changed without marking the chest changed hands the rest to
+     * vanilla. Other containers use vanilla behavior.
+     */
+    @WrapOperation(
+        method = "putDownItem",
+        at = @At(
+            value = "INVOKE",
+            target = "Lnet/minecraft/world/entity/ai/behavior/TransportItemsBetweenContainers;addItemsToContainer(Lnet/minecraft/world/entity/PathfinderMob;Lnet/minecraft/world/Container;)Lnet/minecraft/world/item/ItemStack;"
+        )
+    )
+    private ItemStack indexedDeposit(PathfinderMob mob, Container container, Operation<ItemStack> original) {
+        List<Container> parts = summarizedParts(container);
+        if (parts == null) {
+            return original.call(mob, container);
+        }
+
+        // Collect the candidate slots up front: every write marks the summaries dirty
+        ItemStack held = mob.getMainHandItem();
+        IntArrayList partials = new IntArrayList();
+        int firstEmpty = -1;
+        int offset = 0;
+        for (Container part : parts) {
+            ContainerSummary summary = summary(part);
+            for (int slot : summary.partialSlots(held.getItem())) {
+                partials.add(offset + slot);
+            }
+            if (firstEmpty < 0 && summary.firstEmptySlot() >= 0) {
+                firstEmpty = offset + summary.firstEmptySlot();
+            }
+            offset += part.getContainerSize();
+        }
+
+        for (int i = 0; i < partials.size(); i++) {
+            int slot = partials.getInt(i);
+            if (firstEmpty >= 0 && slot > firstEmpty) break;
+            ItemStack existing = container.getItem(slot);
+            if (!ItemStack.isSameItem(existing, held)) {
+                // Written without setChanged since the summary was read: use the live slots
+                return original.call(mob, container);
+            }
+            if (!ItemStack.isSameItemSameComponents(existing, held)) continue;
+            int moved = Math.min(existing.getMaxStackSize() - existing.getCount(), held.getCount());
+            if (moved <= 0) {
+                return original.call(mob, container);
+            }
+            existing.grow(moved);
+            held.shrink(moved);
+            container.setItem(slot, existing);
+            if (held.isEmpty()) {
+                return ItemStack.EMPTY;
+            }
+        }
+        if (firstEmpty >= 0) {
+            if (!container.getItem(firstEmpty).isEmpty()) {
+                return original.call(mob, container);
+            }
+            container.setItem(firstEmpty, held);
+            return ItemStack.EMPTY;
+        }
+        return held;
+    }
+
     /**
      * Checks if the container already has an item matching the effective stack.
      * Mirrors vanilla's hasItemMatchingHandItem but uses the resolved effective item.
@@ -176,24 +498,68 @@ public class TransportItemsMixin {
     }
 
     /**
-     * Intercepts cooldown to redirect golems holding unmatched items to a wildcard (*) chest.
-     * Catches all three call sites: visited > 10, no targets found, unreachable > 50.
+     * Returns the chest block entities behind the container in slot order, or null
+     * if any of them keeps no contents summary.
+     */
+    @Unique
+    private static @Nullable List<Container> summarizedParts(Container container) {
+        if (container instanceof ContainerSummaryHolder) {
+            return List.of(container);
+        }
+        if (container instanceof CompoundContainer cc) {
+            CompoundContainerAccessor accessor = (CompoundContainerAccessor) cc;
+            if (accessor.getContainer1() instanceof ContainerSummaryHolder
+                && accessor.getContainer2() instanceof ContainerSummaryHolder) {
+                return List.of(accessor.getContainer1(), accessor.getContainer2());
+            }
+        }
+        return null;
+    }
+
+    @Unique
+    private static ContainerSummary summary(Container part) {
+        return ((ContainerSummaryHolder) part).copperstring$getContainerSummary().refresh(part);
+    }
+
+    /**
+     * Summary form of vanilla's leaving requirement: the container is empty or
+     * already holds the item.
+     */
+    @Unique
+    private static boolean isEmptyOrHolds(List<Container> parts, ItemStack stack) {
+        boolean empty = true;
+        for (Container part : parts) {
+            ContainerSummary summary = summary(part);
+            if (summary.contains(stack.getItem())) {
+                return true;
+            }
+            empty &= summary.isEmpty();
+        }
+        return empty;
+    }
+
+    /**
+     * Intercepts cooldown to redirect golems holding unmatched items to the nearest
+     * valid wildcard (*) chest from the chest index. Only acts on the visited > 10
+     * and unreachable > 50 call sites, where target selection never got to the
+     * wildcard chests; after an empty search findIndexedTarget has already tried
+     * them. Only once per fallback, so an unreachable wildcard chest still ends
+     * in the normal cooldown.
      */
     @Inject(method = "enterCooldownAfterNoMatchingTargetFound", at = @At("HEAD"), cancellable = true)
     private void interceptCooldown(PathfinderMob pathfinderMob, CallbackInfo ci) {
-        if (!(pathfinderMob instanceof CopperGolem cg) || pathfinderMob.getMainHandItem().isEmpty()) {
+        if (!(pathfinderMob instanceof CopperGolem cg) || pathfinderMob.getMainHandItem().isEmpty()
+            || !(pathfinderMob.level() instanceof ServerLevel serverLevel)) {
             return;
         }
 
+        boolean searched = wildcardsSearched;
+        wildcardsSearched = false;
         UUID golemId = cg.getUUID();
-        BlockPos wildcardPos = wildcardPositions.remove(golemId);
-        if (wildcardPos == null) {
+        if (searched || forceFallbackDeposit.contains(golemId)) {
             return;
         }
-
-        Level level = pathfinderMob.level();
-        TransportItemsBetweenContainers.TransportItemTarget wildcardTarget =
-            TransportItemsBetweenContainers.TransportItemTarget.tryCreatePossibleTarget(wildcardPos, level);
+        TransportItemsBetweenContainers.TransportItemTarget wildcardTarget = findWildcardTarget(serverLevel, pathfinderMob);
         if (wildcardTarget == null) {
             return;
         }
@@ -206,8 +572,6 @@ public class TransportItemsMixin {
         // to the wildcard target instead of using the old path to the previous target.
         pathfinderMob.getNavigation().stop();
         pathfinderMob.getBrain().eraseMemory(MemoryModuleType.WALK_TARGET);
-        pathfinderMob.getBrain().eraseMemory(MemoryModuleType.VISITED_BLOCK_POSITIONS);
-        pathfinderMob.getBrain().eraseMemory(MemoryModuleType.UNREACHABLE_TRANSPORT_BLOCK_POSITIONS);
         ci.cancel();
     }
 
@@ -217,9 +581,7 @@ public class TransportItemsMixin {
     @Inject(method = "clearMemoriesAfterMatchingTargetFound", at = @At("HEAD"))
     private void onClearMemories(PathfinderMob pathfinderMob, CallbackInfo ci) {
         if (pathfinderMob instanceof CopperGolem cg) {
-            UUID golemId = cg.getUUID();
-            wildcardPositions.remove(golemId);
-            forceFallbackDeposit.remove(golemId);
+            forceFallbackDeposit.remove(cg.getUUID());
         }
     }
 
@@ -229,33 +591,83 @@ public class TransportItemsMixin {
     @Inject(method = "stop(Lnet/minecraft/server/level/ServerLevel;Lnet/minecraft/world/entity/PathfinderMob;J)V", at = @At("HEAD"))
     private void onStop(ServerLevel serverLevel, PathfinderMob pathfinderMob, long l, CallbackInfo ci) {
         if (pathfinderMob instanceof CopperGolem cg) {
-            UUID golemId = cg.getUUID();
-            wildcardPositions.remove(golemId);
-            forceFallbackDeposit.remove(golemId);
+            forceFallbackDeposit.remove(cg.getUUID());
         }
     }
 
     /**
-     * Gets the custom name from a container, handling both single chests
+     * Returns the filter resolved from a copper golem's custom name through the
+     * handle attached to the golem, or null for unnamed golems and other mobs.
+     */
+    @Unique
+    private static FilterResult getGolemFilter(PathfinderMob mob) {
+        if (mob instanceof CopperGolem cg) {
+            return ((FilterHandleHolder) cg).copperstring$getFilterHandle().resolve(cg.getCustomName());
+        }
+        return null;
+    }
+
+    /**
+     * Gets the name filter of a container, handling both single chests
      * (BaseContainerBlockEntity) and double chests (CompoundContainer).
+     * Filters are resolved through the handle attached to each block entity.
      * Returns null if the container has no custom name.
      */
-    private static String getContainerCustomName(Container container) {
-        if (container instanceof BaseContainerBlockEntity bcbe && bcbe.hasCustomName()) {
-            return bcbe.getCustomName().getString();
+    @Unique
+    private static FilterResult getContainerFilter(Container container) {
+        if (container instanceof BaseContainerBlockEntity bcbe) {
+            return resolveFilter(bcbe);
         }
         if (container instanceof CompoundContainer cc) {
             CompoundContainerAccessor accessor = (CompoundContainerAccessor) cc;
-            Container c1 = accessor.getContainer1();
-            Container c2 = accessor.getContainer2();
-            if (c1 instanceof BaseContainerBlockEntity bcbe1 && bcbe1.hasCustomName()) {
-                return bcbe1.getCustomName().getString();
-            }
-            if (c2 instanceof BaseContainerBlockEntity bcbe2 && bcbe2.hasCustomName()) {
-                return bcbe2.getCustomName().getString();
-            }
+            return doubleChestFilter(accessor.getContainer1(), accessor.getContainer2());
         }
         return null;
     }
 
+    /**
+     * Returns true if any stack in the container matches the filter, using the
+     * contents summary of each chest block entity behind it. Double chests
+     * check both halves; other containers fall back to a slot scan.
+     */
+    @Unique
+    private static boolean containerHasMatch(Container container, FilterResult filter) {
+        if (container instanceof ContainerSummaryHolder holder) {
+            return ItemFilterCache.containerMatchesFilter(filter, container, holder.copperstring$getContainerSummary());
+        }
+        if (container instanceof CompoundContainer cc) {
+            CompoundContainerAccessor accessor = (CompoundContainerAccessor) cc;
+            return containerHasMatch(accessor.getContainer1(), filter)
+                || containerHasMatch(accessor.getContainer2(), filter);
+        }
+        return ItemFilterCache.scanForMatch(filter, container) >= 0;
+    }
+
+    /**
+     * Returns the first slot of the container matching the filter, or -1.
+     * Reuses the slot found when the chest was validated as a target if it has
+     * not changed since; double chests offset the second half's slots.
+     */
+    @Unique
+    private static int findMatchingSlot(Container container, FilterResult filter) {
+        if (container instanceof ContainerSummaryHolder holder) {
+            return ItemFilterCache.findMatchingSlot(filter, container, holder.copperstring$getContainerSummary());
+        }
+        if (container instanceof CompoundContainer cc) {
+            CompoundContainerAccessor accessor = (CompoundContainerAccessor) cc;
+            int slot = findMatchingSlot(accessor.getContainer1(), filter);
+            if (slot >= 0) {
+                return slot;
+            }
+            slot = findMatchingSlot(accessor.getContainer2(), filter);
+            return slot >= 0 ? accessor.getContainer1().getContainerSize() + slot : -1;
+        }
+        return ItemFilterCache.scanForMatch(filter, container);
+    }
+
+    @Unique
+    private static FilterResult resolveFilter(BaseContainerBlockEntity blockEntity) {
+        return ((FilterHandleHolder) blockEntity).copperstring$getFilterHandle().resolve(blockEntity.getCustomName());
+    }
+
 }